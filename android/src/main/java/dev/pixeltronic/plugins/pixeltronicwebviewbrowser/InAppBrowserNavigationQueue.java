@@ -0,0 +1,174 @@
+package dev.pixeltronic.plugins.pixeltronicwebviewbrowser;
+
+import android.os.SystemClock;
+import com.getcapacitor.JSObject;
+import com.getcapacitor.PluginCall;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pending navigation calls keyed by navigation id. Calls are enqueued on the bridge thread
+ * and settled on the UI thread; removing a call from the map is what settles it, so every
+ * call is resolved or rejected exactly once no matter which thread gets there first.
+ */
+public class InAppBrowserNavigationQueue {
+
+    private static final String LOG_TAG = "pixeltronic";
+    static final String SUPERSEDED_ERROR = "Navigation was superseded by a newer navigation";
+    static final String LOAD_TIMEOUT_ERROR = "Page load timed out";
+
+    public static final int MAX_PENDING_NAVIGATIONS = 8;
+
+    /**
+     * Millisecond time source for latency, replaceable so the queue can run on a plain JVM.
+     */
+    interface Clock {
+        long elapsedRealtime();
+    }
+
+    public interface OnSettledListener {
+        void onSettled(long navigationId);
+    }
+
+    private static final class PendingNavigation {
+
+        final PluginCall call;
+        final long startedAt;
+
+        PendingNavigation(PluginCall call, long startedAt) {
+            this.call = call;
+            this.startedAt = startedAt;
+        }
+    }
+
+    private final Clock clock;
+    private final AtomicLong nextId = new AtomicLong();
+    private final ConcurrentSkipListMap<Long, PendingNavigation> pending = new ConcurrentSkipListMap<>();
+    private volatile long lastLatency = -1;
+    private volatile OnSettledListener onSettledListener;
+
+    public InAppBrowserNavigationQueue() {
+        this(SystemClock::elapsedRealtime);
+    }
+
+    InAppBrowserNavigationQueue(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Called after a call has been taken out of the table, on the thread that settled it.
+     */
+    public void setOnSettledListener(OnSettledListener onSettledListener) {
+        this.onSettledListener = onSettledListener;
+    }
+
+    /**
+     * Adds a call to the table. Once more than {@link #MAX_PENDING_NAVIGATIONS} calls are in
+     * flight the oldest ones are rejected, since newer navigations have replaced them anyway.
+     */
+    public long enqueue(PluginCall call) {
+        long navigationId = nextId.incrementAndGet();
+        pending.put(navigationId, new PendingNavigation(call, clock.elapsedRealtime()));
+
+        Map.Entry<Long, PendingNavigation> first;
+        while (pending.size() > MAX_PENDING_NAVIGATIONS && (first = pending.firstEntry()) != null) {
+            reject(first.getKey(), SUPERSEDED_ERROR);
+        }
+        return navigationId;
+    }
+
+    public boolean contains(long navigationId) {
+        return pending.containsKey(navigationId);
+    }
+
+    public boolean resolve(long navigationId) {
+        return resolve(navigationId, new JSObject());
+    }
+
+    /**
+     * Resolves the call with {@code result}, adding the time it spent in flight as {@code latency}.
+     */
+    public boolean resolve(long navigationId, JSObject result) {
+        PendingNavigation navigation = take(navigationId);
+        if (navigation == null) {
+            return false;
+        }
+        lastLatency = clock.elapsedRealtime() - navigation.startedAt;
+        result.put("latency", lastLatency);
+        navigation.call.resolve(result);
+        return true;
+    }
+
+    public boolean reject(long navigationId, String message) {
+        PendingNavigation navigation = take(navigationId);
+        if (navigation == null) {
+            return false;
+        }
+        navigation.call.reject(LOG_TAG, message);
+        return true;
+    }
+
+    /**
+     * Settles a navigation whose timeout elapsed. With {@code fallbackOnTimeout} the call resolves
+     * with {@code timedOut} and the fallback capture, if any, otherwise it is rejected. Does nothing
+     * if the call already settled.
+     */
+    public boolean expire(long navigationId, boolean fallbackOnTimeout, String fallbackCapture) {
+        if (!fallbackOnTimeout) {
+            return reject(navigationId, LOAD_TIMEOUT_ERROR);
+        }
+        JSObject result = new JSObject();
+        result.put("timedOut", true);
+        if (fallbackCapture != null) {
+            result.put("src", fallbackCapture);
+        }
+        return resolve(navigationId, result);
+    }
+
+    /**
+     * Rejects every navigation older than the given one. Their pages never finish loading
+     * once a newer navigation has been handed to the WebView.
+     */
+    public int supersedeBefore(long navigationId) {
+        int rejected = 0;
+        Map.Entry<Long, PendingNavigation> first;
+        while ((first = pending.firstEntry()) != null && first.getKey() < navigationId) {
+            if (reject(first.getKey(), SUPERSEDED_ERROR)) {
+                rejected++;
+            }
+        }
+        return rejected;
+    }
+
+    public int rejectAll(String message) {
+        int rejected = 0;
+        Map.Entry<Long, PendingNavigation> first;
+        while ((first = pending.firstEntry()) != null) {
+            if (reject(first.getKey(), message)) {
+                rejected++;
+            }
+        }
+        return rejected;
+    }
+
+    public int size() {
+        return pending.size();
+    }
+
+    /**
+     * Latency in milliseconds of the most recently resolved navigation, or -1 if none has resolved yet.
+     */
+    public long getLastLatency() {
+        return lastLatency;
+    }
+
+    private PendingNavigation take(long navigationId) {
+        PendingNavigation navigation = pending.remove(navigationId);
+        OnSettledListener listener = onSettledListener;
+        if (navigation != null && listener != null) {
+            listener.onSettled(navigationId);
+        }
+        return navigation;
+    }
+}
@@ -2,16 +2,17 @@ package dev.pixeltronic.plugins.pixeltronicwebviewbrowser;
 
 import android.content.Context;
 import com.getcapacitor.JSObject;
-import com.getcapacitor.PluginCall;
 
+/**
+ * Layout and request options for the WebView. Only touched from the UI thread; state that
+ * the bridge thread needs to read lives in {@link InAppBrowserState}.
+ */
 public class InAppBrowserOptions {
 
     private JSObject headers = null;
     private Context context;
     private JSObject colorScheme = null;
-    private PluginCall savedCall = null;
     private String targetUrl = null;
-    private boolean hidden = false;
     private int width = 1;
     private int height = 1;
     private int x = 0;
@@ -38,14 +39,6 @@ public class InAppBrowserOptions {
         this.colorScheme = colorScheme;
     }
 
-    public PluginCall getSavedCall() {
-        return savedCall;
-    }
-
-    public void setSavedCall(PluginCall savedCall) {
-        this.savedCall = savedCall;
-    }
-
     public String getTargetUrl() {
         return targetUrl;
     }
@@ -54,14 +47,6 @@ public class InAppBrowserOptions {
         this.targetUrl = targetUrl;
     }
 
-    public boolean isHidden() {
-        return hidden;
-    }
-
-    public void setHidden(boolean hidden) {
-        this.hidden = hidden;
-    }
-
     public int getWidth() {
         return width;
     }
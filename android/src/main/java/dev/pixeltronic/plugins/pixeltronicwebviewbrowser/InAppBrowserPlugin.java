@@ -4,6 +4,8 @@ import android.Manifest;
 import android.annotation.SuppressLint;
 import android.graphics.Bitmap;
 import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
 import android.os.Message;
 import android.text.TextUtils;
 import android.util.Log;
@@ -26,10 +28,13 @@ import com.getcapacitor.annotation.Permission;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
-import java.util.concurrent.Executor;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 @CapacitorPlugin(name = "InAppBrowserPlugin", permissions = { @Permission(strings = { Manifest.permission.INTERNET }, alias = "internet") })
@@ -38,16 +43,49 @@ public class InAppBrowserPlugin extends Plugin {
     private static final String LOG_TAG = "pixeltronic";
     private static final String NO_WEBVIEW_ERROR = "No valid InAppBrowser instance found";
     private static final String MISSING_DIMENSIONS_ERROR = "Height or width is missing";
+    private static final String CAPTURE_ERROR = "Failed to capture screen.";
     private static final String INVALID_MISSING_URL_ERROR = "must provide a valid URL to open";
+    private static final String WEBVIEW_CLOSED_ERROR = "InAppBrowser was closed before the page finished loading";
+    private static final String LOAD_CANCELLED_ERROR = "Page load was cancelled";
+    private static final int DEFAULT_LOAD_TIMEOUT = 0;
+    private static final float FALLBACK_CAPTURE_SCALE = 0.5f;
+    private static final int FALLBACK_CAPTURE_QUALITY = 60;
+
+    private interface WebViewAction {
+        void run(WebView webView);
+    }
+
+    private final InAppBrowserNavigationQueue navigations = new InAppBrowserNavigationQueue();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Map<Long, Runnable> timeouts = new ConcurrentHashMap<>();
+    private final ExecutorService captureExecutor = Executors.newSingleThreadExecutor();
+    // Navigations that resolve with fallbackCapture on timeout; the capture is only kept while one is pending.
+    private final Set<Long> fallbackNavigations = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private volatile String fallbackCapture = null;
 
-    private WebView webView;
+    // Written only on the UI thread, read from any thread.
+    private volatile InAppBrowserState state = InAppBrowserState.EMPTY;
     private InAppBrowserOptions options;
-    private boolean isLoading = false;
+    // UI thread only, set together with the WebView in state.
+    private InAppBrowserRenderPolicy renderPolicy;
 
     @Override
     public void load() {
         super.load();
         options = new InAppBrowserOptions(this.getContext());
+        navigations.setOnSettledListener(this::onNavigationSettled);
+    }
+
+    @Override
+    protected void handleOnDestroy() {
+        if (state.hasWebView()) {
+            removeAndDestroyWebView();
+        } else {
+            navigations.rejectAll(WEBVIEW_CLOSED_ERROR);
+        }
+        mainHandler.removeCallbacksAndMessages(null);
+        captureExecutor.shutdown();
+        super.handleOnDestroy();
     }
 
     @PluginMethod
@@ -56,8 +94,9 @@ public class InAppBrowserPlugin extends Plugin {
             call.reject(LOG_TAG, "Android web view is not installed");
             return;
         }*/
-        options.setSavedCall(call);
-        getActivity().runOnUiThread(this::configureWebView);
+        long navigationId = navigations.enqueue(call);
+        scheduleTimeout(call, navigationId);
+        getActivity().runOnUiThread(() -> configureWebView(call, navigationId));
     }
 
     @PluginMethod
@@ -66,7 +105,6 @@ public class InAppBrowserPlugin extends Plugin {
             () -> {
                 if (webViewExists()) {
                     removeAndDestroyWebView();
-                    options.setHidden(false);
                     call.resolve();
                 }
             }
@@ -85,17 +123,17 @@ public class InAppBrowserPlugin extends Plugin {
 
     @PluginMethod
     public void navigateBack(final PluginCall call) {
-        performWebViewAction(call, webView::goBack);
+        performWebViewAction(call, WebView::goBack);
     }
 
     @PluginMethod
     public void navigateForward(final PluginCall call) {
-        performWebViewAction(call, webView::goForward);
+        performWebViewAction(call, WebView::goForward);
     }
 
     @PluginMethod
     public void refresh(final PluginCall call) {
-        performWebViewAction(call, webView::reload);
+        performWebViewAction(call, WebView::reload);
     }
 
     @PluginMethod
@@ -111,8 +149,27 @@ public class InAppBrowserPlugin extends Plugin {
             return;
         }
 
-        options.setSavedCall(call);
-        runOnUI(() -> loadUrlWithHeaders(urlString));
+        long navigationId = navigations.enqueue(call);
+        scheduleTimeout(call, navigationId);
+        runOnUI(() -> loadUrlWithHeaders(urlString, navigationId));
+    }
+
+    @PluginMethod
+    public void cancelLoad(final PluginCall call) {
+        runOnUI(
+            () -> {
+                if (!webViewExists()) {
+                    call.reject(LOG_TAG, NO_WEBVIEW_ERROR);
+                    return;
+                }
+                // Settle first: stopLoading() can fire onPageFinished, which would resolve them.
+                int cancelled = navigations.rejectAll(LOAD_CANCELLED_ERROR);
+                state.getWebView().stopLoading();
+                state = state.withLoading(false);
+                sendLoadingEvent();
+                call.resolve(new JSObject().put("cancelled", cancelled));
+            }
+        );
     }
 
     @PluginMethod
@@ -124,11 +181,22 @@ public class InAppBrowserPlugin extends Plugin {
 
     @PluginMethod
     public void updateDimensions(final PluginCall call) {
-        if (webView != null) {
+        if (!state.hasWebView()) {
+            call.reject(LOG_TAG, NO_WEBVIEW_ERROR);
+        } else {
             getActivity()
                 .runOnUiThread(
                     () -> {
-                        setWebViewOptions(call);
+                        WebView webView = state.getWebView();
+                        if (webView == null) {
+                            call.reject(LOG_TAG, NO_WEBVIEW_ERROR);
+                            return;
+                        }
+                        String optionsError = setWebViewOptions(call);
+                        if (optionsError != null) {
+                            call.reject(LOG_TAG, optionsError);
+                            return;
+                        }
 
                         ViewGroup.LayoutParams params = webView.getLayoutParams();
 
@@ -138,7 +206,7 @@ public class InAppBrowserPlugin extends Plugin {
                         webView.setY(options.getYInPixels());
                         webView.requestLayout();
 
-                        if (options.isHidden()) {
+                        if (state.isHidden()) {
                             // notifyListeners("captureScreen", new JSObject());
                         }
 
@@ -150,23 +218,58 @@ public class InAppBrowserPlugin extends Plugin {
 
     @PluginMethod
     public void captureScreen(final PluginCall call) {
+        WebView webView = state.getWebView();
         if (webView == null) {
             call.reject(LOG_TAG, NO_WEBVIEW_ERROR);
             return;
         }
-        if (webView.getWidth() > 0 && webView.getHeight() > 0) {
-            Executor executor = Executors.newSingleThreadExecutor();
-            executor.execute(new InAppBrowserScreenTask(call, webView));
-        } else {
-            call.reject(LOG_TAG, MISSING_DIMENSIONS_ERROR);
-        }
+        runOnUI(
+            () -> {
+                InAppBrowserRenderPolicy policy = renderPolicy;
+                if (state.getWebView() != webView || policy == null || captureExecutor.isShutdown()) {
+                    call.reject(LOG_TAG, NO_WEBVIEW_ERROR);
+                    return;
+                }
+                if (webView.getWidth() <= 0 || webView.getHeight() <= 0) {
+                    call.reject(LOG_TAG, MISSING_DIMENSIONS_ERROR);
+                    return;
+                }
+
+                Bitmap bitmap;
+                policy.beginCapture();
+                try {
+                    bitmap = InAppBrowserScreenTask.draw(webView);
+                } catch (RuntimeException e) {
+                    call.reject(LOG_TAG, CAPTURE_ERROR, e);
+                    return;
+                } catch (OutOfMemoryError e) {
+                    call.reject(LOG_TAG, CAPTURE_ERROR);
+                    return;
+                } finally {
+                    policy.endCapture();
+                }
+                captureExecutor.execute(new InAppBrowserScreenTask(call, bitmap));
+            }
+        );
+    }
+
+    @PluginMethod
+    public void getMetrics(final PluginCall call) {
+        runOnUI(
+            () -> {
+                JSObject metrics = renderPolicy != null ? renderPolicy.getMetrics() : new JSObject();
+                metrics.put("pendingNavigations", navigations.size());
+                metrics.put("lastLatency", navigations.getLastLatency());
+                call.resolve(metrics);
+            }
+        );
     }
 
-    private void performWebViewAction(final PluginCall call, Runnable action) {
+    private void performWebViewAction(final PluginCall call, WebViewAction action) {
         runOnUI(
             () -> {
                 if (webViewExists()) {
-                    action.run();
+                    action.run(state.getWebView());
                     call.resolve();
                 }
             }
@@ -177,19 +280,63 @@ public class InAppBrowserPlugin extends Plugin {
         runOnUI(
             () -> {
                 if (webViewExists()) {
-                    webView.setVisibility(visibility);
+                    renderPolicy.setVisibility(visibility);
+                    state = state.withHidden(visibility != View.VISIBLE);
                     call.resolve();
                 }
             }
         );
     }
 
+    private void scheduleTimeout(final PluginCall call, long navigationId) {
+        int timeout = call.getInt("timeout", DEFAULT_LOAD_TIMEOUT);
+        if (timeout <= 0) {
+            return;
+        }
+        boolean fallbackOnTimeout = call.getBoolean("fallbackOnTimeout", false);
+        if (fallbackOnTimeout) {
+            fallbackNavigations.add(navigationId);
+        }
+        Runnable timeoutTask = () -> onNavigationTimeout(navigationId, fallbackOnTimeout);
+        timeouts.put(navigationId, timeoutTask);
+        mainHandler.postDelayed(timeoutTask, timeout);
+        // The call may have settled before the task was registered.
+        if (!navigations.contains(navigationId)) {
+            onNavigationSettled(navigationId);
+        }
+    }
+
+    private void onNavigationSettled(long navigationId) {
+        cancelTimeout(navigationId);
+        if (fallbackNavigations.remove(navigationId) && fallbackNavigations.isEmpty()) {
+            fallbackCapture = null;
+        }
+    }
+
+    private void cancelTimeout(long navigationId) {
+        Runnable timeoutTask = timeouts.remove(navigationId);
+        if (timeoutTask != null) {
+            mainHandler.removeCallbacks(timeoutTask);
+        }
+    }
+
+    private void onNavigationTimeout(long navigationId, boolean fallbackOnTimeout) {
+        if (!navigations.expire(navigationId, fallbackOnTimeout, fallbackCapture)) {
+            return;
+        }
+
+        InAppBrowserState current = state;
+        if (current.hasWebView() && current.isLoading() && current.getNavigationId() == navigationId) {
+            current.getWebView().stopLoading();
+        }
+    }
+
     private void runOnUI(Runnable action) {
         getActivity().runOnUiThread(action);
     }
 
     private boolean webViewExists() {
-        if (webView == null) {
+        if (!state.hasWebView()) {
             notifyError(NO_WEBVIEW_ERROR);
             return false;
         }
@@ -201,16 +348,35 @@ public class InAppBrowserPlugin extends Plugin {
     }
 
     private void removeAndDestroyWebView() {
+        destroyWebView();
+        navigations.rejectAll(WEBVIEW_CLOSED_ERROR);
+    }
+
+    /**
+     * Detaches and destroys the current WebView without touching pending navigation calls.
+     */
+    private void destroyWebView() {
+        WebView webView = state.getWebView();
+        state = InAppBrowserState.EMPTY;
+        renderPolicy = null;
         ViewGroup rootGroup = ((ViewGroup) getBridge().getWebView().getParent());
-        rootGroup.removeView(webView);
+        if (rootGroup != null) {
+            rootGroup.removeView(webView);
+        }
         webView.destroy();
-        webView = null;
+        fallbackCapture = null;
     }
 
-    private void loadUrlWithHeaders(String urlString) {
+    private void loadUrlWithHeaders(String urlString, long navigationId) {
+        WebView webView = state.getWebView();
         if (webView == null) {
+            navigations.reject(navigationId, NO_WEBVIEW_ERROR);
             return;
         }
+        startNavigation(navigationId);
+        if (fallbackNavigations.contains(navigationId)) {
+            captureFallback(webView);
+        }
         JSObject headers = options.getHeaders();
         if (headers == null) {
             webView.loadUrl(urlString);
@@ -235,29 +401,75 @@ public class InAppBrowserPlugin extends Plugin {
         webView.loadUrl(urlString, requestHeaders);
     }
 
-    private void configureWebView() {
-        PluginCall call = options.getSavedCall();
+    /**
+     * Keeps a reduced snapshot of the page that is still shown, for a navigation that resolves
+     * with it on timeout.
+     */
+    private void captureFallback(WebView webView) {
+        InAppBrowserRenderPolicy policy = renderPolicy;
+        if (policy == null || webView.getWidth() <= 0 || webView.getHeight() <= 0 || captureExecutor.isShutdown()) {
+            return;
+        }
+
+        Bitmap bitmap;
+        policy.beginCapture();
         try {
-            options.setHidden(false);
+            bitmap = InAppBrowserScreenTask.draw(webView, FALLBACK_CAPTURE_SCALE);
+        } catch (RuntimeException | OutOfMemoryError e) {
+            Log.e(LOG_TAG, CAPTURE_ERROR, e);
+            return;
+        } finally {
+            policy.endCapture();
+        }
+        captureExecutor.execute(
+            new InAppBrowserScreenTask(
+                bitmap,
+                FALLBACK_CAPTURE_QUALITY,
+                src -> {
+                    if (!fallbackNavigations.isEmpty()) {
+                        fallbackCapture = src;
+                    }
+                }
+            )
+        );
+    }
 
-            webView = new WebView(this.getContext());
-            webView.setLayerType(View.LAYER_TYPE_HARDWARE, null);
-            webView.setDrawingCacheEnabled(true);
+    private void startNavigation(long navigationId) {
+        navigations.supersedeBefore(navigationId);
+        state = state.withNavigationId(navigationId);
+    }
 
-            configureWebSettings(call);
+    private void configureWebView(final PluginCall call, long navigationId) {
+        String urlString = call.getString("url");
+        if (TextUtils.isEmpty(urlString)) {
+            navigations.reject(navigationId, INVALID_MISSING_URL_ERROR);
+            return;
+        }
+
+        String optionsError = setWebViewOptions(call);
+        if (optionsError != null) {
+            navigations.reject(navigationId, optionsError);
+            return;
+        }
+
+        if (state.hasWebView()) {
+            // Reopening replaces the browser; calls on the old WebView can no longer finish.
+            destroyWebView();
+            navigations.supersedeBefore(navigationId);
+        }
+
+        try {
+            WebView webView = new WebView(this.getContext());
+            renderPolicy = new InAppBrowserRenderPolicy(webView);
+            state = InAppBrowserState.EMPTY.withWebView(webView);
+
+            configureWebSettings(webView, call);
 
             bridge.getWebView().getSettings().setJavaScriptCanOpenWindowsAutomatically(true);
 
             webView.setWebChromeClient(createWebChromeClient());
             webView.setWebViewClient(createWebViewClient());
-            webView.setVisibility(View.INVISIBLE);
-
-            String urlString = call.getString("url");
-            if (urlString == null || urlString.isEmpty()) {
-                call.reject(LOG_TAG, INVALID_MISSING_URL_ERROR);
-            }
-
-            setWebViewOptions(call);
+            renderPolicy.setVisibility(View.INVISIBLE);
 
             ViewGroup.LayoutParams params = new ViewGroup.LayoutParams(
                 ViewGroup.LayoutParams.MATCH_PARENT,
@@ -272,18 +484,17 @@ public class InAppBrowserPlugin extends Plugin {
 
             ((ViewGroup) getBridge().getWebView().getParent()).addView(webView);
 
-            if (urlString != null) {
-                webView.loadUrl(urlString);
-            }
+            startNavigation(navigationId);
+            webView.loadUrl(urlString);
         } catch (Exception e) {
-            isLoading = false;
+            state = state.withLoading(false);
             sendLoadingEvent();
-            call.reject(LOG_TAG, NO_WEBVIEW_ERROR);
+            navigations.reject(navigationId, NO_WEBVIEW_ERROR);
         }
     }
 
     @SuppressLint("SetJavaScriptEnabled")
-    private void configureWebSettings(final PluginCall call) {
+    private void configureWebSettings(WebView webView, final PluginCall call) {
         WebSettings settings = webView.getSettings();
         settings.setJavaScriptCanOpenWindowsAutomatically(true);
         settings.setJavaScriptEnabled(true);
@@ -336,8 +547,8 @@ public class InAppBrowserPlugin extends Plugin {
             public void onLoadResource(WebView view, String url) {
                 if (hasListeners("navigationHandler")) {
                     handleNavigationEvent(url, true);
-                } else {
-                    webView.loadUrl(url);
+                } else if (state.hasWebView()) {
+                    state.getWebView().loadUrl(url);
                 }
                 view.removeAllViews();
                 view.destroy();
@@ -364,19 +575,27 @@ public class InAppBrowserPlugin extends Plugin {
             @Override
             public void onPageStarted(WebView view, String url, Bitmap favicon) {
                 super.onPageStarted(view, url, favicon);
-                isLoading = true;
+                InAppBrowserState current = state;
+                if (view != current.getWebView()) {
+                    return;
+                }
+                if (current.getLoadingNavigationId() != current.getNavigationId()) {
+                    // First page started since the last navigation was handed to the WebView.
+                    current = current.withLoadingNavigationId(current.getNavigationId());
+                }
+                state = current.withLoading(true);
                 sendLoadingEvent();
             }
 
             @Override
             public void onPageFinished(WebView view, String url) {
                 super.onPageFinished(view, url);
-                isLoading = false;
-                sendLoadingEvent();
-                if (options.getSavedCall() != null) {
-                    options.getSavedCall().resolve();
-                    options.setSavedCall(null);
+                if (view != state.getWebView()) {
+                    return;
                 }
+                state = state.withLoading(false);
+                sendLoadingEvent();
+                navigations.resolve(state.getLoadingNavigationId());
             }
 
             @Override
@@ -399,44 +618,49 @@ public class InAppBrowserPlugin extends Plugin {
     }
 
     private void sendLoadingEvent() {
-        webView.setVisibility(isLoading ? View.INVISIBLE : View.VISIBLE);
+        InAppBrowserState current = state;
+        if (renderPolicy != null) {
+            renderPolicy.setVisibility(current.isLoading() ? View.INVISIBLE : View.VISIBLE);
+        }
         JSObject result = new JSObject();
-        result.put("isLoading", isLoading);
+        result.put("isLoading", current.isLoading());
         notifyListeners("pageLoaded", result, true);
     }
 
-    private void setWebViewOptions(final PluginCall call) {
+    /**
+     * Copies the dimensions of the call into the options. Returns an error message if one is
+     * missing; the caller decides how to settle the call.
+     */
+    private String setWebViewOptions(final PluginCall call) {
         Integer height = call.getInt("height");
         if (height == null) {
-            call.reject(LOG_TAG, "height is required");
-            return;
+            return "height is required";
         }
         options.setHeight(height);
 
         Integer width = call.getInt("width");
         if (width == null) {
-            call.reject(LOG_TAG, "width is required");
-            return;
+            return "width is required";
         }
         options.setWidth(width);
 
         Integer x = call.getInt("x");
         if (x == null) {
-            call.reject(LOG_TAG, "x coordinate is required");
-            return;
+            return "x coordinate is required";
         }
         options.setX(x);
 
         Integer y = call.getInt("y");
         if (y == null) {
-            call.reject(LOG_TAG, "y coordinate is required");
-            return;
+            return "y coordinate is required";
         }
         options.setY(y);
         options.setRatio(2.5f);
+        return null;
     }
 
     private void handleNavigationEvent(String url, boolean newWindow) {
+        WebView webView = state.getWebView();
         if (webView != null) {
             options.setTargetUrl(url);
             try {
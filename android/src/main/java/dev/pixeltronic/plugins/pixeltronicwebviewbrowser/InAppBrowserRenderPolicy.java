@@ -0,0 +1,95 @@
+package dev.pixeltronic.plugins.pixeltronicwebviewbrowser;
+
+import android.view.View;
+import com.getcapacitor.JSObject;
+
+/**
+ * Decides how the WebView is rendered. The browser never uses an offscreen layer: the
+ * WebView stays on {@link View#LAYER_TYPE_NONE} and is still drawn GPU-accelerated by the
+ * window. It is only ever moved or resized in single steps, and a layer that is drawn for
+ * one frame only costs an allocation and an extra rasterization pass. The drawing cache is
+ * only enabled while a capture is running, so an idle or hidden browser holds no extra
+ * offscreen buffers.
+ *
+ * Must only be used from the UI thread.
+ */
+public class InAppBrowserRenderPolicy {
+
+    private static final int BYTES_PER_PIXEL = 4;
+
+    private final View view;
+    private int activeCaptures = 0;
+
+    public InAppBrowserRenderPolicy(View view) {
+        this.view = view;
+        apply();
+    }
+
+    public void setVisibility(int visibility) {
+        view.setVisibility(visibility);
+        apply();
+    }
+
+    public void beginCapture() {
+        activeCaptures++;
+        apply();
+    }
+
+    public void endCapture() {
+        if (activeCaptures > 0) {
+            activeCaptures--;
+        }
+        apply();
+    }
+
+    /**
+     * Estimated bytes held by an offscreen layer and the drawing cache.
+     */
+    @SuppressWarnings("deprecation")
+    public long getLayerMemory() {
+        long frameBytes = (long) view.getWidth() * view.getHeight() * BYTES_PER_PIXEL;
+        long memory = 0;
+        if (view.getLayerType() != View.LAYER_TYPE_NONE) {
+            memory += frameBytes;
+        }
+        if (view.isDrawingCacheEnabled()) {
+            memory += frameBytes;
+        }
+        return memory;
+    }
+
+    @SuppressWarnings("deprecation")
+    public JSObject getMetrics() {
+        JSObject metrics = new JSObject();
+        metrics.put("layerType", layerTypeName(view.getLayerType()));
+        metrics.put("drawingCacheEnabled", view.isDrawingCacheEnabled());
+        metrics.put("layerMemory", getLayerMemory());
+        return metrics;
+    }
+
+    @SuppressWarnings("deprecation")
+    private void apply() {
+        if (view.getLayerType() != View.LAYER_TYPE_NONE) {
+            view.setLayerType(View.LAYER_TYPE_NONE, null);
+        }
+
+        boolean drawingCache = activeCaptures > 0;
+        if (view.isDrawingCacheEnabled() != drawingCache) {
+            view.setDrawingCacheEnabled(drawingCache);
+            if (!drawingCache) {
+                view.destroyDrawingCache();
+            }
+        }
+    }
+
+    private static String layerTypeName(int layerType) {
+        switch (layerType) {
+            case View.LAYER_TYPE_HARDWARE:
+                return "hardware";
+            case View.LAYER_TYPE_SOFTWARE:
+                return "software";
+            default:
+                return "none";
+        }
+    }
+}
@@ -11,43 +11,77 @@ import java.io.IOException;
 
 public class InAppBrowserScreenTask implements Runnable {
     private static final String LOG_TAG = "pixeltronic";
+    private static final int CAPTURE_QUALITY = 100;
+
+    public interface OnCaptureListener {
+        void onCapture(String src);
+    }
 
     private final PluginCall call;
     private Exception exception;
-    private final WebView webView;
+    private final Bitmap bitmap;
+    private final int quality;
+    private final OnCaptureListener listener;
 
-    public InAppBrowserScreenTask(PluginCall call, WebView webView) {
-        this.call = call;
-        this.webView = webView;
+    public InAppBrowserScreenTask(PluginCall call, Bitmap bitmap) {
+        this(call, bitmap, CAPTURE_QUALITY, null);
     }
 
-    @Override
-    public void run() {
-        final JSObject object = doInBackground();
-        onPostExecute(object);
+    /**
+     * Encodes {@code bitmap} for {@code listener} only, without a call to settle.
+     */
+    public InAppBrowserScreenTask(Bitmap bitmap, int quality, OnCaptureListener listener) {
+        this(null, bitmap, quality, listener);
     }
 
-    private JSObject doInBackground() {
-        final JSObject object = new JSObject();
+    private InAppBrowserScreenTask(PluginCall call, Bitmap bitmap, int quality, OnCaptureListener listener) {
+        this.call = call;
+        this.bitmap = bitmap;
+        this.quality = quality;
+        this.listener = listener;
+    }
 
+    public static Bitmap draw(WebView webView) {
+        return draw(webView, 1f);
+    }
+
+    /**
+     * Draws the WebView into a new bitmap scaled by {@code scale}. Must run on the UI thread;
+     * only the encoding done by {@link #run()} belongs on a background thread.
+     */
+    public static Bitmap draw(WebView webView, float scale) {
         int scrollY = webView.getScrollY();
 
-        webView.setDrawingCacheEnabled(true);
-        final Bitmap bm = Bitmap.createBitmap(webView.getWidth(), webView.getHeight(), Bitmap.Config.ARGB_8888);
+        int width = Math.max(1, Math.round(webView.getWidth() * scale));
+        int height = Math.max(1, Math.round(webView.getHeight() * scale));
+        final Bitmap bm = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
         final Canvas canvas = new Canvas(bm);
+        canvas.scale(scale, scale);
         webView.draw(canvas);
 
         webView.scrollTo(0, scrollY); // Restore the original scroll position
-        webView.destroyDrawingCache();
+        return bm;
+    }
+
+    @Override
+    public void run() {
+        final JSObject object = doInBackground();
+        onPostExecute(object);
+    }
+
+    private JSObject doInBackground() {
+        final JSObject object = new JSObject();
 
         try (ByteArrayOutputStream os = new ByteArrayOutputStream()) {
-            bm.compress(Bitmap.CompressFormat.JPEG, 100, os);
+            bitmap.compress(Bitmap.CompressFormat.JPEG, quality, os);
             byte[] byteArray = os.toByteArray();
             String src = Base64.encodeToString(byteArray, Base64.DEFAULT);
 
             object.put("src", src);
         } catch (IOException e) {
             exception = e;
+        } finally {
+            bitmap.recycle();
         }
 
         return object;
@@ -55,8 +89,13 @@ public class InAppBrowserScreenTask implements Runnable {
 
     private void onPostExecute(JSObject object) {
         if (exception == null) {
-            call.resolve(object);
-        } else {
+            if (listener != null) {
+                listener.onCapture(object.getString("src"));
+            }
+            if (call != null) {
+                call.resolve(object);
+            }
+        } else if (call != null) {
             call.reject(LOG_TAG, "Failed to capture screen.", exception);
         }
     }
@@ -0,0 +1,81 @@
+package dev.pixeltronic.plugins.pixeltronicwebviewbrowser;
+
+import android.webkit.WebView;
+
+/**
+ * Immutable snapshot of the browser state. A new snapshot is published by the UI thread
+ * whenever the state changes, so plugin methods running on the bridge thread always see
+ * a consistent view without taking a lock.
+ */
+public final class InAppBrowserState {
+
+    public static final InAppBrowserState EMPTY = new InAppBrowserState(null, false, false, 0L, 0L);
+
+    private final WebView webView;
+    private final boolean loading;
+    private final boolean hidden;
+    private final long navigationId;
+    private final long loadingNavigationId;
+
+    private InAppBrowserState(WebView webView, boolean loading, boolean hidden, long navigationId, long loadingNavigationId) {
+        this.webView = webView;
+        this.loading = loading;
+        this.hidden = hidden;
+        this.navigationId = navigationId;
+        this.loadingNavigationId = loadingNavigationId;
+    }
+
+    public WebView getWebView() {
+        return webView;
+    }
+
+    public boolean hasWebView() {
+        return webView != null;
+    }
+
+    public boolean isLoading() {
+        return loading;
+    }
+
+    public boolean isHidden() {
+        return hidden;
+    }
+
+    /**
+     * Id of the most recent navigation that was handed to the WebView.
+     */
+    public long getNavigationId() {
+        return navigationId;
+    }
+
+    /**
+     * Id of the navigation whose page the WebView has started loading. It is claimed by the
+     * first onPageStarted of the current WebView after {@link #getNavigationId()} changes.
+     * An aborted page that already started keeps its own id, so its late onPageFinished does
+     * not settle the navigation that replaced it. A page whose onPageStarted only arrives after
+     * the newer navigation was handed to the WebView can still claim the newer id.
+     */
+    public long getLoadingNavigationId() {
+        return loadingNavigationId;
+    }
+
+    public InAppBrowserState withWebView(WebView webView) {
+        return new InAppBrowserState(webView, loading, hidden, navigationId, loadingNavigationId);
+    }
+
+    public InAppBrowserState withLoading(boolean loading) {
+        return new InAppBrowserState(webView, loading, hidden, navigationId, loadingNavigationId);
+    }
+
+    public InAppBrowserState withHidden(boolean hidden) {
+        return new InAppBrowserState(webView, loading, hidden, navigationId, loadingNavigationId);
+    }
+
+    public InAppBrowserState withNavigationId(long navigationId) {
+        return new InAppBrowserState(webView, loading, hidden, navigationId, loadingNavigationId);
+    }
+
+    public InAppBrowserState withLoadingNavigationId(long loadingNavigationId) {
+        return new InAppBrowserState(webView, loading, hidden, navigationId, loadingNavigationId);
+    }
+}
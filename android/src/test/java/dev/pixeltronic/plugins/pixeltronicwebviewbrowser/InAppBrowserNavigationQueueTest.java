@@ -0,0 +1,203 @@
+package dev.pixeltronic.plugins.pixeltronicwebviewbrowser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.getcapacitor.JSObject;
+import com.getcapacitor.PluginCall;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.Invocation;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class InAppBrowserNavigationQueueTest {
+
+    private static final int BRIDGE_THREADS = 8;
+    private static final int CALLS_PER_THREAD = 250;
+
+    @Test
+    public void enqueueBeyondLimitRejectsOldestAsSuperseded() {
+        InAppBrowserNavigationQueue navigations = new InAppBrowserNavigationQueue(() -> 0L);
+        PluginCall[] calls = new PluginCall[InAppBrowserNavigationQueue.MAX_PENDING_NAVIGATIONS + 1];
+        for (int i = 0; i < calls.length; i++) {
+            calls[i] = mock(PluginCall.class);
+            navigations.enqueue(calls[i]);
+        }
+
+        verify(calls[0]).reject("pixeltronic", InAppBrowserNavigationQueue.SUPERSEDED_ERROR);
+        for (int i = 1; i < calls.length; i++) {
+            assertEquals(0, settleCount(calls[i]));
+        }
+        assertEquals(InAppBrowserNavigationQueue.MAX_PENDING_NAVIGATIONS, navigations.size());
+    }
+
+    @Test
+    public void resolveReportsLatency() throws Exception {
+        AtomicLong now = new AtomicLong(1000);
+        InAppBrowserNavigationQueue navigations = new InAppBrowserNavigationQueue(now::get);
+        PluginCall call = mock(PluginCall.class);
+        long navigationId = navigations.enqueue(call);
+
+        now.set(1250);
+        assertTrue(navigations.resolve(navigationId));
+
+        ArgumentCaptor<JSObject> result = ArgumentCaptor.forClass(JSObject.class);
+        verify(call).resolve(result.capture());
+        assertEquals(250L, result.getValue().getLong("latency"));
+        assertEquals(250L, navigations.getLastLatency());
+    }
+
+    @Test
+    public void expireRejectsWithTimeoutError() {
+        InAppBrowserNavigationQueue navigations = new InAppBrowserNavigationQueue(() -> 0L);
+        PluginCall call = mock(PluginCall.class);
+        long navigationId = navigations.enqueue(call);
+
+        assertTrue(navigations.expire(navigationId, false, null));
+        verify(call).reject("pixeltronic", InAppBrowserNavigationQueue.LOAD_TIMEOUT_ERROR);
+    }
+
+    @Test
+    public void expireAfterResolveIsNoOp() {
+        InAppBrowserNavigationQueue navigations = new InAppBrowserNavigationQueue(() -> 0L);
+        PluginCall call = mock(PluginCall.class);
+        long navigationId = navigations.enqueue(call);
+        navigations.resolve(navigationId);
+
+        assertFalse(navigations.expire(navigationId, false, null));
+        assertFalse(navigations.expire(navigationId, true, "src"));
+        verify(call).resolve(any(JSObject.class));
+        verify(call, never()).reject(anyString(), anyString());
+        assertEquals(1, settleCount(call));
+    }
+
+    @Test
+    public void settlingNotifiesListenerOnce() {
+        InAppBrowserNavigationQueue navigations = new InAppBrowserNavigationQueue(() -> 0L);
+        List<Long> settled = new ArrayList<>();
+        navigations.setOnSettledListener(settled::add);
+        long navigationId = navigations.enqueue(mock(PluginCall.class));
+
+        navigations.resolve(navigationId);
+        navigations.reject(navigationId, "rejected");
+
+        assertEquals(1, settled.size());
+        assertEquals(navigationId, (long) settled.get(0));
+    }
+
+    @Test
+    public void concurrentEnqueueAndSettleSettlesEveryCallExactlyOnce() throws Exception {
+        InAppBrowserNavigationQueue navigations = new InAppBrowserNavigationQueue(() -> 0L);
+        PluginCall[][] calls = new PluginCall[BRIDGE_THREADS][CALLS_PER_THREAD];
+        for (PluginCall[] threadCalls : calls) {
+            for (int i = 0; i < threadCalls.length; i++) {
+                threadCalls[i] = mock(PluginCall.class);
+            }
+        }
+
+        AtomicLong latestId = new AtomicLong();
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(BRIDGE_THREADS + 3);
+        List<Future<?>> bridgeTasks = new ArrayList<>();
+        List<Future<?>> settleTasks = new ArrayList<>();
+
+        for (PluginCall[] threadCalls : calls) {
+            bridgeTasks.add(
+                executor.submit(
+                    () -> {
+                        start.await();
+                        for (PluginCall call : threadCalls) {
+                            long navigationId = navigations.enqueue(call);
+                            latestId.accumulateAndGet(navigationId, Math::max);
+                        }
+                        return null;
+                    }
+                )
+            );
+        }
+        settleTasks.add(
+            executor.submit(
+                () -> {
+                    start.await();
+                    while (running.get()) {
+                        long navigationId = latestId.get();
+                        navigations.supersedeBefore(navigationId);
+                        navigations.resolve(navigationId);
+                    }
+                    return null;
+                }
+            )
+        );
+        settleTasks.add(
+            executor.submit(
+                () -> {
+                    start.await();
+                    while (running.get()) {
+                        navigations.reject(latestId.get() - 1, "rejected");
+                    }
+                    return null;
+                }
+            )
+        );
+        settleTasks.add(
+            executor.submit(
+                () -> {
+                    start.await();
+                    while (running.get()) {
+                        navigations.rejectAll("cancelled");
+                        Thread.yield();
+                    }
+                    return null;
+                }
+            )
+        );
+
+        start.countDown();
+        for (Future<?> task : bridgeTasks) {
+            task.get(30, TimeUnit.SECONDS);
+        }
+        running.set(false);
+        for (Future<?> task : settleTasks) {
+            task.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        navigations.rejectAll("closed");
+        assertEquals(0, navigations.size());
+        for (PluginCall[] threadCalls : calls) {
+            for (PluginCall call : threadCalls) {
+                assertEquals(1, settleCount(call));
+            }
+        }
+    }
+
+    private static int settleCount(PluginCall call) {
+        int count = 0;
+        for (Invocation invocation : mockingDetails(call).getInvocations()) {
+            String name = invocation.getMethod().getName();
+            if (name.equals("resolve") || name.equals("reject")) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,85 @@
+package dev.pixeltronic.plugins.pixeltronicwebviewbrowser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.view.View;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(RobolectricTestRunner.class)
+@SuppressWarnings("deprecation")
+public class InAppBrowserRenderPolicyTest {
+
+    private static final int WIDTH = 100;
+    private static final int HEIGHT = 50;
+
+    private View view;
+    private InAppBrowserRenderPolicy policy;
+
+    @Before
+    public void setUp() {
+        view = new View(RuntimeEnvironment.getApplication());
+        view.layout(0, 0, WIDTH, HEIGHT);
+        policy = new InAppBrowserRenderPolicy(view);
+    }
+
+    @Test
+    public void idleViewHasNoLayerOrDrawingCache() {
+        assertEquals(View.LAYER_TYPE_NONE, view.getLayerType());
+        assertFalse(view.isDrawingCacheEnabled());
+        assertEquals(0L, policy.getLayerMemory());
+    }
+
+    @Test
+    public void existingLayerIsDropped() {
+        View layered = new View(RuntimeEnvironment.getApplication());
+        layered.layout(0, 0, WIDTH, HEIGHT);
+        layered.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+
+        new InAppBrowserRenderPolicy(layered);
+
+        assertEquals(View.LAYER_TYPE_NONE, layered.getLayerType());
+    }
+
+    @Test
+    public void visibilityChangesKeepNoLayer() {
+        policy.setVisibility(View.INVISIBLE);
+
+        assertEquals(View.LAYER_TYPE_NONE, view.getLayerType());
+        assertEquals(View.INVISIBLE, view.getVisibility());
+
+        policy.setVisibility(View.VISIBLE);
+
+        assertEquals(View.LAYER_TYPE_NONE, view.getLayerType());
+        assertEquals(0L, policy.getLayerMemory());
+    }
+
+    @Test
+    public void captureTogglesDrawingCache() {
+        policy.beginCapture();
+
+        assertTrue(view.isDrawingCacheEnabled());
+        assertEquals((long) WIDTH * HEIGHT * 4, policy.getLayerMemory());
+
+        policy.endCapture();
+
+        assertFalse(view.isDrawingCacheEnabled());
+        assertEquals(0L, policy.getLayerMemory());
+    }
+
+    @Test
+    public void unbalancedEndKeepsViewIdle() {
+        policy.endCapture();
+        policy.endCapture();
+        policy.beginCapture();
+        policy.endCapture();
+
+        assertEquals(View.LAYER_TYPE_NONE, view.getLayerType());
+        assertFalse(view.isDrawingCacheEnabled());
+    }
+}
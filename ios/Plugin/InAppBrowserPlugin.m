@@ -12,7 +12,9 @@ CAP_PLUGIN(InAppBrowserPlugin, "InAppBrowserPlugin",
            CAP_PLUGIN_METHOD(navigateForward, CAPPluginReturnPromise);
            CAP_PLUGIN_METHOD(refresh, CAPPluginReturnPromise);
            CAP_PLUGIN_METHOD(loadUrl, CAPPluginReturnPromise);
+           CAP_PLUGIN_METHOD(cancelLoad, CAPPluginReturnPromise);
            CAP_PLUGIN_METHOD(onNavigation, CAPPluginReturnPromise);
            CAP_PLUGIN_METHOD(updateDimensions, CAPPluginReturnPromise);
            CAP_PLUGIN_METHOD(captureScreen, CAPPluginReturnPromise);
+           CAP_PLUGIN_METHOD(getMetrics, CAPPluginReturnPromise);
 )
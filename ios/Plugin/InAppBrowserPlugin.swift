@@ -133,6 +133,24 @@ public class InAppBrowserPlugin: CAPPlugin {
         }
     }
 
+    @objc func cancelLoad(_ call: CAPPluginCall) {
+        DispatchQueue.main.async {
+            guard let inAppBrowser = self.inAppBrowser else {
+                call.reject(Constants.NO_WEBVIEW_ERROR)
+                return
+            }
+            var cancelled = 0
+            if let savedCall = self.savedCall {
+                savedCall.reject("Page load was cancelled")
+                self.savedCall = nil
+                cancelled = 1
+            }
+            inAppBrowser.webview?.stopLoading()
+            inAppBrowser.sendLoadingEvent(false)
+            call.resolve(["cancelled": cancelled])
+        }
+    }
+
     @objc func onNavigation(_ call: CAPPluginCall) {
         if self.inAppBrowser != nil && self.inAppBrowser?.currentDecisionHandler != nil {
             if call.getBool("allow") ?? true {
@@ -190,6 +208,12 @@ public class InAppBrowserPlugin: CAPPlugin {
         }
     }
 
+    @objc func getMetrics(_ call: CAPPluginCall) {
+        DispatchQueue.main.async {
+            call.resolve(["pendingNavigations": self.savedCall == nil ? 0 : 1])
+        }
+    }
+
     @objc func hasEventListeners(eventName: String) -> Bool {
         hasListeners(eventName)
     }
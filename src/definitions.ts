@@ -6,7 +6,7 @@ export interface InAppBrowserInterface {
    * Should only be called after createWebView has finished successfully
    * optional headers can be set here as well for example User-Agent
    */
-  openWebView(options: OpenOptions): Promise<void>;
+  openWebView(options: OpenOptions): Promise<NavigationResult>;
   /**
    * Close and destroy an open webview.
    */
@@ -30,7 +30,11 @@ export interface InAppBrowserInterface {
   /**
    * Load a specified URL in an existing webview.
    */
-  loadUrl(options: { url: string }): Promise<void>;
+  loadUrl(options: LoadOptions): Promise<NavigationResult>;
+  /**
+   * Stop the current page load and reject every pending openWebView/loadUrl call.
+   */
+  cancelLoad(): Promise<CancelResult>;
   /**
    * Refresh the current page in the webview.
    */
@@ -70,10 +74,14 @@ export interface InAppBrowserInterface {
    * Update the dimensions of the webview
    */
   updateDimensions(options?: Dimensions): Promise<void>;
+  /**
+   * Report rendering and navigation metrics of the webview
+   */
+  getMetrics(): Promise<Metrics>;
 }
 
 export interface NativeInterface {
-  openWebView(options: OpenOptions): Promise<void>;
+  openWebView(options: OpenOptions): Promise<NavigationResult>;
   closeWebView(): Promise<void>;
   showWebView(): Promise<void>;
   hideWebView(): Promise<void>;
@@ -82,20 +90,48 @@ export interface NativeInterface {
   navigateBack(): Promise<void>;
   navigateForward(): Promise<void>;
   refresh(): Promise<void>;
-  loadUrl(options?: { url: string }): Promise<void>;
+  loadUrl(options?: LoadOptions): Promise<NavigationResult>;
+  cancelLoad(): Promise<CancelResult>;
   onNavigation(options?: { allow: boolean }): Promise<void>;
   updateDimensions(options?: Dimensions): Promise<void>;
   captureScreen(options?: Dimensions): Promise<ScreenShot>;
+  getMetrics(): Promise<Metrics>;
   addListener(
     eventName: EventListeners,
     listenerFunc: (...args: any[]) => void,
   ): Promise<PluginListenerHandle>;
 }
+export interface LoadOptions {
+  /**
+   * The URL to load
+   */
+  url: string;
+  /**
+   * Milliseconds to wait for the page to finish loading, 0 disables the timeout
+   * Android only, defaults to 0
+   */
+  timeout?: number;
+  /**
+   * Resolve a timed out load with a snapshot of the previous page instead of rejecting it
+   * Android only
+   */
+  fallbackOnTimeout?: boolean;
+}
 export interface OpenOptions extends Dimensions {
   /**
    * The URL to open the webview to
    */
   url: string;
+  /**
+   * Milliseconds to wait for the page to finish loading, 0 disables the timeout
+   * Android only, defaults to 0
+   */
+  timeout?: number;
+  /**
+   * Resolve a timed out load with a snapshot of the previous page instead of rejecting it
+   * Android only
+   */
+  fallbackOnTimeout?: boolean;
   /**
    * element id of DOM node to which the webview should be attached
    * web view only
@@ -172,3 +208,40 @@ export type EventListeners =
 export type ErrorCode = { errorCode: number };
 export type PageLoadStatus = { isLoading: boolean };
 export type ScreenShot = { src: string };
+export type NavigationResult = {
+  /**
+   *  milliseconds between the call and the page finishing to load (Android only)
+   */
+  latency?: number;
+  /**
+   *  true if the load timed out and fallbackOnTimeout was set
+   */
+  timedOut?: boolean;
+  /**
+   *  reduced snapshot of the page shown before the load, set on a timed out load if one was taken
+   */
+  src?: string;
+};
+export type CancelResult = { cancelled: number };
+export type Metrics = {
+  /**
+   *  current layer type of the webview: none, software or hardware (Android only)
+   */
+  layerType?: string;
+  /**
+   *  whether the drawing cache is enabled, only during a capture (Android only)
+   */
+  drawingCacheEnabled?: boolean;
+  /**
+   *  estimated bytes held by the hardware layer and drawing cache (Android only)
+   */
+  layerMemory?: number;
+  /**
+   *  number of openWebView/loadUrl calls that have not settled yet
+   */
+  pendingNavigations: number;
+  /**
+   *  latency in milliseconds of the last resolved navigation, -1 if none (Android only)
+   */
+  lastLatency?: number;
+};
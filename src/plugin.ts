@@ -8,6 +8,10 @@ import type {
   Dimensions,
   OpenOptions,
   NavigationEvent,
+  NavigationResult,
+  LoadOptions,
+  CancelResult,
+  Metrics,
   ErrorCode,
   ScreenShot,
   EventListeners,
@@ -25,8 +29,8 @@ export class InAppBrowserClass implements InAppBrowserInterface {
   pageLoadErrorEvent?: PluginListenerHandle;
   resizeObserver?: ResizeObserver;
 
-  async openWebView(options: OpenOptions): Promise<void> {
-    if (!(await this.platformCheck())) return;
+  async openWebView(options: OpenOptions): Promise<NavigationResult> {
+    if (!(await this.platformCheck())) return {};
     this.element = options.element;
 
     if (!this.element) {
@@ -41,12 +45,15 @@ export class InAppBrowserClass implements InAppBrowserInterface {
     });
     this.resizeObserver.observe(this.element);
 
-    await InAppBrowserPlugin.openWebView({
+    const result = await InAppBrowserPlugin.openWebView({
       url: options.url,
       headers: options.headers,
+      timeout: options.timeout,
+      fallbackOnTimeout: options.fallbackOnTimeout,
       ...dimensions
     });
     this.url = options.url;
+    return result ?? {};
   };
 
   async closeWebView(): Promise<void> {
@@ -64,9 +71,14 @@ export class InAppBrowserClass implements InAppBrowserInterface {
     return (await this.platformCheck()) && InAppBrowserPlugin.hideWebView();
   };
 
-  loadUrl = async (options: { url: string }): Promise<void> => {
+  loadUrl = async (options: LoadOptions): Promise<NavigationResult> => {
     if (await this.platformCheck()) this.url = options.url;
-    await InAppBrowserPlugin.loadUrl(options);
+    return (await InAppBrowserPlugin.loadUrl(options)) ?? {};
+  };
+
+  cancelLoad = async (): Promise<CancelResult> => {
+    if (!(await this.platformCheck())) return { cancelled: 0 };
+    return InAppBrowserPlugin.cancelLoad();
   };
 
   reload = async (): Promise<void> => {
@@ -83,6 +95,11 @@ export class InAppBrowserClass implements InAppBrowserInterface {
     );
   }
 
+  getMetrics = async (): Promise<Metrics> => {
+    if (!(await this.platformCheck())) return { pendingNavigations: 0 };
+    return InAppBrowserPlugin.getMetrics();
+  };
+
   navigateBack = async (): Promise<void> => {
     return (await this.platformCheck()) && InAppBrowserPlugin.navigateBack();
   };